@@ -4,10 +4,12 @@ import edu.vanier.models.PostalCode;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
+import javafx.geometry.Side;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.AnchorPane;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -44,6 +46,9 @@ public class MainAppFXMLController {
     @FXML
     private TableColumn<PostalCode, Double> distanceColumn;
 
+    private static final String POSTAL_CODE_PATTERN = "^[A-Z][0-9][A-Z]$";
+    private static final int MAX_SUGGESTIONS = 10;
+
 
     /**
      * Initializes the controller after the root element has been completely processed.
@@ -64,6 +69,55 @@ public class MainAppFXMLController {
         distanceColumn.setCellValueFactory(new PropertyValueFactory<>("distanceToReference"));
 
         locationsTableView.setVisible(false);
+
+        enableSuggestions(postalCodeField1);
+        enableSuggestions(postalCodeField2);
+        enableSuggestions(postalCodeFieldNearby);
+    }
+
+    /**
+     * Shows live suggestions under a postal code text field while the user types a partial
+     * postal code or city name. Selecting a suggestion fills in its postal code.
+     *
+     * @param field The text field to attach the suggestions to.
+     */
+    private void enableSuggestions(TextField field) {
+        ContextMenu suggestionsMenu = new ContextMenu();
+
+        field.textProperty().addListener((observable, oldText, newText) -> {
+            String text = newText.trim();
+            if (text.isEmpty() || !field.isFocused() || text.matches(POSTAL_CODE_PATTERN)) {
+                suggestionsMenu.hide();
+                return;
+            }
+
+            List<PostalCode> suggestions = controller.suggest(text, MAX_SUGGESTIONS);
+            if (suggestions.isEmpty()) {
+                suggestionsMenu.hide();
+                return;
+            }
+
+            List<MenuItem> items = new ArrayList<>(suggestions.size());
+            for (PostalCode pc : suggestions) {
+                MenuItem item = new MenuItem(pc.getPostalCode() + " - " + pc.getCity() + " (" + pc.getProvince() + ")");
+                item.setOnAction(event -> {
+                    field.setText(pc.getPostalCode());
+                    field.positionCaret(pc.getPostalCode().length());
+                });
+                items.add(item);
+            }
+            suggestionsMenu.getItems().setAll(items);
+
+            if (!suggestionsMenu.isShowing()) {
+                suggestionsMenu.show(field, Side.BOTTOM, 0, 0);
+            }
+        });
+
+        field.focusedProperty().addListener((observable, wasFocused, isFocused) -> {
+            if (!isFocused) {
+                suggestionsMenu.hide();
+            }
+        });
     }
 
     /**
@@ -98,13 +152,11 @@ public class MainAppFXMLController {
         String postalCode1 = postalCodeField1.getText().trim();
         String postalCode2 = postalCodeField2.getText().trim();
 
-        String postalCodePattern = "^[A-Z][0-9][A-Z]$";
-
         if (postalCode1.isEmpty() || postalCode2.isEmpty()) {
             resultLabel.setText("Please enter both postal codes.");
-        } else if (!postalCode1.matches(postalCodePattern)) {
+        } else if (!postalCode1.matches(POSTAL_CODE_PATTERN)) {
             resultLabel.setText("Postal Code 1 is invalid. Format must be Letter-Digit-Letter (e.g., H1E).");
-        } else if (!postalCode2.matches(postalCodePattern)) {
+        } else if (!postalCode2.matches(POSTAL_CODE_PATTERN)) {
             resultLabel.setText("Postal Code 2 is invalid. Format must be Letter-Digit-Letter (e.g., H1E).");
         } else {
             double distance = controller.distanceTo(postalCode1, postalCode2);
@@ -140,11 +192,9 @@ public class MainAppFXMLController {
         String postalCode = postalCodeFieldNearby.getText().trim();
         Integer radius = radiusChoiceBox.getValue();
 
-        String postalCodePattern = "^[A-Z][0-9][A-Z]$";
-
         if (postalCode.isEmpty()) {
             resultLabel.setText("Please enter a postal code.");
-        } else if (!postalCode.matches(postalCodePattern)) {
+        } else if (!postalCode.matches(POSTAL_CODE_PATTERN)) {
             resultLabel.setText("Postal code is invalid. Format must be Letter-Digit-Letter (e.g., H1E).");
         } else if (radius == null) {
             resultLabel.setText("Please select a radius.");
@@ -155,11 +205,6 @@ public class MainAppFXMLController {
                 resultLabel.setText("No locations found within the specified radius.");
                 locationsTableView.setItems(null);
             } else {
-                for (PostalCode pc : nearbyLocationsResults) {
-                    double distance = controller.distanceTo(postalCode, pc.getPostalCode());
-                    pc.setDistanceToReference(distance);
-                }
-
                 ObservableList<PostalCode> data = FXCollections.observableArrayList(nearbyLocationsResults);
                 locationsTableView.setItems(data);
                 resultLabel.setText("");
@@ -3,13 +3,24 @@ package edu.vanier.controllers;
 import com.opencsv.CSVReader;
 import com.opencsv.CSVReaderBuilder;
 import com.opencsv.exceptions.CsvValidationException;
+import edu.vanier.models.DistanceBands;
+import edu.vanier.models.NearbyLocation;
 import edu.vanier.models.PostalCode;
+import edu.vanier.models.ValidationReport;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
 
 /**
  * Controller class responsible for managing and manipulating postal codes data.
@@ -17,8 +28,16 @@ import java.util.List;
  * and finding nearby locations based on a given radius.
  */
 public class PostalCodeController {
+    /**
+     * Mean radius of the Earth in kilometers.
+     */
+    public static final double EARTH_RADIUS = 6371;
+
     private final HashMap<String, PostalCode> postalCodes = new HashMap<>();
     private final String csvFilePath;
+    private ValidationReport validationReport;
+    private PrefixIndex prefixIndex = new PrefixIndex(List.of());
+    private SpatialIndex spatialIndex = new SpatialIndex(List.of());
 
     /**
      * Constructs a PostalCodeController with the specified path to the CSV file.
@@ -31,42 +50,18 @@ public class PostalCodeController {
 
     /**
      * Parses the CSV file and populates the postalCodes map with PostalCode objects.
-     * Handles incorrectly formatted lines
+     * The lines are read sequentially, then validated in parallel in a single pass; lines that are
+     * incorrectly formatted or fail validation never reach the map, and are quarantined with their raw
+     * fields in the validation report. When a postal code appears on several valid lines, the last one wins.
+     * The map is cleared first, so after parsing it holds exactly the postal codes accepted from this file.
      */
     public void parse() {
-        try {
-            CSVReader reader = new CSVReaderBuilder(new FileReader(csvFilePath)).build();
-            String[] nextLine;
-            int lineNumber = 0;
+        List<String[]> lines = new ArrayList<>();
 
+        try (CSVReader reader = new CSVReaderBuilder(new FileReader(csvFilePath)).build()) {
+            String[] nextLine;
             while ((nextLine = reader.readNext()) != null) {
-                lineNumber++;
-                try {
-                    if (nextLine.length != 7) {
-                        nextLine = fixCsvLine(nextLine);
-                    }
-
-                    if (nextLine.length != 7) {
-                        System.err.println("Skipping line " + lineNumber + ": Incorrect number of columns after processing.");
-                        continue;
-                    }
-
-                    String id = nextLine[0];
-                    String country = nextLine[1];
-                    String postalCodeStr = nextLine[2];
-                    String city = nextLine[3];
-                    String province = nextLine[4];
-                    double latitude = Double.parseDouble(nextLine[5]);
-                    double longitude = Double.parseDouble(nextLine[6]);
-
-                    PostalCode postalCode = new PostalCode(id, postalCodeStr, province, city, latitude, longitude);
-                    postalCodes.put(postalCodeStr, postalCode);
-
-                } catch (NumberFormatException e) {
-                    System.err.println("Skipping line " + lineNumber + ": Number format error - " + e.getMessage());
-                } catch (IllegalArgumentException e) {
-                    System.err.println("Skipping line " + lineNumber + ": " + e.getMessage());
-                }
+                lines.add(nextLine);
             }
         } catch (FileNotFoundException e) {
             throw new RuntimeException("CSV file not found: " + csvFilePath, e);
@@ -75,54 +70,115 @@ public class PostalCodeController {
         } catch (IOException e) {
             throw new RuntimeException("IO error while reading CSV file", e);
         }
+
+        PostalCode[] parsed = new PostalCode[lines.size()];
+        List<Set<ValidationReport.ErrorType>> errors = new ArrayList<>(Collections.nCopies(lines.size(), null));
+
+        IntStream.range(0, lines.size()).parallel().forEach(i -> {
+            String[] line = lines.get(i);
+            if (line.length != 7) {
+                line = fixCsvLine(line);
+            }
+            if (line.length != 7) {
+                errors.set(i, EnumSet.of(ValidationReport.ErrorType.COLUMN_COUNT));
+                return;
+            }
+            Set<ValidationReport.ErrorType> lineErrors = validate(line);
+            errors.set(i, lineErrors);
+            if (lineErrors.isEmpty()) {
+                parsed[i] = new PostalCode(line[0], line[2], line[4], line[3],
+                        Double.parseDouble(line[5]), Double.parseDouble(line[6]));
+            }
+        });
+
+        // Merge sequentially so later lines still override earlier duplicates, as they did before.
+        ValidationReport report = new ValidationReport();
+        postalCodes.clear();
+        HashMap<String, Integer> lineNumbers = new HashMap<>();
+        for (int i = 0; i < parsed.length; i++) {
+            if (parsed[i] != null) {
+                postalCodes.put(parsed[i].getPostalCode(), parsed[i]);
+                report.recordAccepted();
+                Integer overriddenLine = lineNumbers.put(parsed[i].getPostalCode(), i + 1);
+                if (overriddenLine != null) {
+                    report.recordDuplicate(overriddenLine);
+                }
+            } else {
+                report.recordRejected(errors.get(i), i + 1, lines.get(i));
+            }
+        }
+        validationReport = report;
+        prefixIndex = new PrefixIndex(postalCodes.values());
+        spatialIndex = new SpatialIndex(postalCodes.values());
     }
 
     /**
-     * Validates the parsed postal codes by checking for valid postal code length,
+     * Validates the fields of a CSV line by checking for valid postal code length,
      * non-empty city and province, and valid latitude and longitude values.
-     * Logs invalid entries.
+     * Every check is run, so all the problems of the line are reported.
+     *
+     * @param line The 7 fields of the line.
+     * @return The problems found, empty if the line is valid.
      */
-    public void validateParsedData() {
-        boolean allValid = true;
-
-        for (PostalCode postalCode : postalCodes.values()) {
-            boolean valid = true;
-
-            if (postalCode.getPostalCode().length() != 3) {
-                System.out.println("Invalid Postal Code: " + postalCode.getPostalCode() + " (ID: " + postalCode.getId() + ")");
-                valid = false;
-            }
+    private static Set<ValidationReport.ErrorType> validate(String[] line) {
+        Set<ValidationReport.ErrorType> errors = EnumSet.noneOf(ValidationReport.ErrorType.class);
 
-            if (postalCode.getCity() == null || postalCode.getCity().isEmpty()) {
-                System.out.println("Invalid City for Postal Code: " + postalCode.getPostalCode() + " (ID: " + postalCode.getId() + ")");
-                valid = false;
-            }
-            if (postalCode.getProvince() == null || postalCode.getProvince().isEmpty()) {
-                System.out.println("Invalid Province for Postal Code: " + postalCode.getPostalCode() + " (ID: " + postalCode.getId() + ")");
-                valid = false;
-            }
+        if (line[2].length() != 3) {
+            errors.add(ValidationReport.ErrorType.POSTAL_CODE);
+        }
+        if (line[3].isEmpty()) {
+            errors.add(ValidationReport.ErrorType.CITY);
+        }
+        if (line[4].isEmpty()) {
+            errors.add(ValidationReport.ErrorType.PROVINCE);
+        }
 
-            if (postalCode.getLatitude() < -90 || postalCode.getLatitude() > 90) {
-                System.out.println("Invalid Latitude for Postal Code: " + postalCode.getPostalCode() + " (ID: " + postalCode.getId() + ")");
-                valid = false;
+        try {
+            double latitude = Double.parseDouble(line[5]);
+            if (!(latitude >= -90 && latitude <= 90)) {
+                errors.add(ValidationReport.ErrorType.LATITUDE);
             }
-            if (postalCode.getLongitude() < -180 || postalCode.getLongitude() > 180) {
-                System.out.println("Invalid Longitude for Postal Code: " + postalCode.getPostalCode() + " (ID: " + postalCode.getId() + ")");
-                valid = false;
+        } catch (NumberFormatException e) {
+            errors.add(ValidationReport.ErrorType.NUMBER_FORMAT);
+        }
+        try {
+            double longitude = Double.parseDouble(line[6]);
+            if (!(longitude >= -180 && longitude <= 180)) {
+                errors.add(ValidationReport.ErrorType.LONGITUDE);
             }
+        } catch (NumberFormatException e) {
+            errors.add(ValidationReport.ErrorType.NUMBER_FORMAT);
+        }
+        return errors;
+    }
 
-            if (!valid) {
-                allValid = false;
-            }
+    /**
+     * Prints the summary of the validation stage run by the last call to {@link #parse()}.
+     * Invalid entries are rejected while parsing, so every postal code in the map is valid.
+     */
+    public void validateParsedData() {
+        if (validationReport == null) {
+            System.out.println("No data has been parsed yet.");
+            return;
         }
 
-        if (allValid) {
+        System.out.println(validationReport);
+        if (validationReport.isAllValid()) {
             System.out.println("All postal codes passed validation.");
         } else {
-            System.out.println("Some postal codes failed validation.");
+            System.out.println("Some postal codes failed validation and were skipped.");
         }
     }
 
+    /**
+     * Returns the validation report produced by the last call to {@link #parse()}.
+     *
+     * @return The validation report, or null if no data has been parsed yet.
+     */
+    public ValidationReport getValidationReport() {
+        return validationReport;
+    }
+
     /**
      * Attempts to fix a CSV line with more than 7 fields by merging fields into the city name.
      *
@@ -179,58 +235,203 @@ public class PostalCodeController {
 
     /**
      * Finds postal codes within a specified radius from a given postal code.
+     * The distance of each postal code to the reference is stored with {@link PostalCode#setDistanceToReference},
+     * so this method is meant for a single caller at a time, such as the UI thread. Concurrent callers
+     * should use {@link #nearbyLocations(double, double, double)}, which returns the distances instead.
      *
      * @param from   The postal code from which to search.
      * @param radius The radius (in kilometers) within which to find nearby postal codes.
      * @return A list of nearby postal codes.
      */
     public List<PostalCode> nearbyLocations(String from, int radius) {
-        System.out.println("Entering nearbyLocations method.");
-        System.out.println("Parameters received - from: " + from + ", radius: " + radius);
-
-        List<PostalCode> results = new ArrayList<>();
         PostalCode fromPostalCode = postalCodes.get(from);
 
         if (fromPostalCode == null) {
             System.out.println("The postal code '" + from + "' does not exist in the database.");
-            return results;
+            return new ArrayList<>();
         }
 
-        double latitude1 = fromPostalCode.getLatitude();
-        double longitude1 = fromPostalCode.getLongitude();
-        System.out.println("Reference postal code coordinates - Latitude: " + latitude1 + ", Longitude: " + longitude1);
+        List<PostalCode> results = new ArrayList<>();
+        for (NearbyLocation location : nearbyLocations(fromPostalCode.getLatitude(), fromPostalCode.getLongitude(), radius)) {
+            if (location.getPostalCode() != fromPostalCode) {
+                location.getPostalCode().setDistanceToReference(location.getDistance());
+                results.add(location.getPostalCode());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Finds postal codes within a specified radius from an arbitrary point, such as a GPS fix.
+     * Only the cells of the spatial index overlapping the search circle are scanned.
+     * The shared PostalCode objects are not modified, so this method can be called from many threads.
+     *
+     * @param latitude  The latitude of the point.
+     * @param longitude The longitude of the point.
+     * @param radius    The radius (in kilometers) within which to find nearby postal codes.
+     * @return The nearby postal codes with their distances, empty if the coordinates are invalid.
+     */
+    public List<NearbyLocation> nearbyLocations(double latitude, double longitude, double radius) {
+        List<NearbyLocation> results = new ArrayList<>();
+        spatialIndex.forEachWithin(latitude, longitude, radius,
+                (postalCode, distance) -> results.add(new NearbyLocation(postalCode, distance)));
+        return results;
+    }
 
-        int totalPostalCodes = postalCodes.size();
-        System.out.println("Total postal codes to check: " + totalPostalCodes);
+    /**
+     * Finds the postal code closest to an arbitrary point (reverse geocoding).
+     *
+     * @param latitude  The latitude of the point.
+     * @param longitude The longitude of the point.
+     * @return The closest postal code, or null if there is no data or the coordinates are invalid.
+     */
+    public PostalCode nearestPostalCode(double latitude, double longitude) {
+        return spatialIndex.nearest(latitude, longitude);
+    }
+
+    /**
+     * Finds the closest postal code for each point of a batch, such as a stream of GPS fixes.
+     * The points are reverse geocoded in parallel.
+     *
+     * @param latitudes  The latitudes of the points.
+     * @param longitudes The longitudes of the points, in the same order as the latitudes.
+     * @return The closest postal code of each point, with null entries for invalid coordinates.
+     * @throws IllegalArgumentException if the two arrays do not have the same length.
+     */
+    public PostalCode[] nearestPostalCodes(double[] latitudes, double[] longitudes) {
+        if (latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException("Latitudes and longitudes must have the same length.");
+        }
 
-        int checkedPostalCodes = 0;
-        int addedPostalCodes = 0;
+        PostalCode[] results = new PostalCode[latitudes.length];
+        IntStream.range(0, latitudes.length).parallel()
+                .forEach(i -> results[i] = spatialIndex.nearest(latitudes[i], longitudes[i]));
+        return results;
+    }
 
-        for (PostalCode toPostalCode : postalCodes.values()) {
-            checkedPostalCodes++;
+    /**
+     * Counts the postal codes around each origin by distance band, grouped by province or city,
+     * e.g. how many postal codes per province are within 25, 50 and 100 km of each depot.
+     * Each origin takes a single radius query on the spatial index, up to the last band limit,
+     * and the origins are processed in parallel.
+     *
+     * @param origins    The postal codes distances are measured from, each listed once.
+     * @param bandLimits The upper limit of each band in kilometers, in increasing order.
+     * @param groupBy    Whether postal codes are grouped by province or by city.
+     * @return The counts of each origin, keyed by origin postal code in the given order.
+     *         Origins that do not exist in the database are left out, and each origin is not counted around itself.
+     * @throws IllegalArgumentException if an origin is listed more than once, if there are no bands
+     *                                  or if the limits are not increasing.
+     */
+    public Map<String, DistanceBands> distanceBands(List<String> origins, double[] bandLimits, DistanceBands.GroupBy groupBy) {
+        DistanceBands.validateBandLimits(bandLimits);
+        if (new HashSet<>(origins).size() != origins.size()) {
+            throw new IllegalArgumentException("Each origin must be listed only once.");
+        }
+        DistanceBands[] results = new DistanceBands[origins.size()];
 
-            if (toPostalCode.getPostalCode().equals(from)) {
-                System.out.println("Skipping same postal code: " + toPostalCode.getPostalCode());
-                continue;
+        IntStream.range(0, origins.size()).parallel().forEach(i -> {
+            PostalCode origin = postalCodes.get(origins.get(i));
+            if (origin != null) {
+                results[i] = countDistanceBands(new DistanceBands(origin, bandLimits, groupBy), origin);
             }
+        });
 
-            double latitude2 = toPostalCode.getLatitude();
-            double longitude2 = toPostalCode.getLongitude();
+        Map<String, DistanceBands> resultsByOrigin = new LinkedHashMap<>();
+        for (DistanceBands bands : results) {
+            if (bands != null) {
+                resultsByOrigin.put(bands.getOrigin().getPostalCode(), bands);
+            }
+        }
+        return resultsByOrigin;
+    }
 
-            double distance = haversine(latitude1, longitude1, latitude2, longitude2);
+    /**
+     * Counts the postal codes around arbitrary points, such as depots, by distance band,
+     * grouped by province or city. The points are processed in parallel, one radius query each.
+     *
+     * @param latitudes  The latitudes of the origins.
+     * @param longitudes The longitudes of the origins, in the same order as the latitudes.
+     * @param bandLimits The upper limit of each band in kilometers, in increasing order.
+     * @param groupBy    Whether postal codes are grouped by province or by city.
+     * @return The counts of each origin, in the given order, with null entries for invalid coordinates.
+     *         Repeated origins get their own entries.
+     * @throws IllegalArgumentException if the two arrays do not have the same length, if there are no bands
+     *                                  or if the limits are not increasing.
+     */
+    public List<DistanceBands> distanceBands(double[] latitudes, double[] longitudes, double[] bandLimits,
+                                             DistanceBands.GroupBy groupBy) {
+        if (latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException("Latitudes and longitudes must have the same length.");
+        }
+        DistanceBands.validateBandLimits(bandLimits);
+        DistanceBands[] results = new DistanceBands[latitudes.length];
 
-            System.out.printf("Calculated distance from %s to %s: %.2f km%n", from, toPostalCode.getPostalCode(), distance);
+        IntStream.range(0, latitudes.length).parallel().forEach(i -> {
+            if (latitudes[i] >= -90 && latitudes[i] <= 90 && longitudes[i] >= -180 && longitudes[i] <= 180) {
+                results[i] = countDistanceBands(new DistanceBands(latitudes[i], longitudes[i], bandLimits, groupBy), null);
+            }
+        });
+        return Arrays.asList(results);
+    }
 
-            if (distance <= radius) {
-                toPostalCode.setDistanceToReference(distance);
-                results.add(toPostalCode);
-                addedPostalCodes++;
-                System.out.println("Added postal code " + toPostalCode.getPostalCode() + " to results. Total added: " + addedPostalCodes);
+    /**
+     * Counts the postal codes around the origin of the given bands with a single radius query,
+     * up to the last band limit.
+     *
+     * @param bands   The empty bands to fill.
+     * @param exclude A postal code not to count, usually the origin itself, or null.
+     * @return The filled bands.
+     */
+    private DistanceBands countDistanceBands(DistanceBands bands, PostalCode exclude) {
+        double[] bandLimits = bands.getBandLimits();
+        spatialIndex.forEachWithin(bands.getOriginLatitude(), bands.getOriginLongitude(),
+                bandLimits[bandLimits.length - 1], (postalCode, distance) -> {
+                    if (postalCode != exclude) {
+                        bands.add(postalCode, distance);
+                    }
+                });
+        return bands;
+    }
+
+    /**
+     * Suggests postal codes for a partially typed postal code or city name, e.g. "H1" or "mont".
+     * Postal codes starting with the text come first, followed by postal codes whose city
+     * has a word starting with it. When nothing starts with the text, postal codes and city words
+     * it matches give or take one typo are suggested instead, e.g. "H1F" or "montrael".
+     *
+     * @param prefix The text typed so far.
+     * @param limit  The maximum number of suggestions to return.
+     * @return The suggested postal codes.
+     * @throws IllegalArgumentException if the limit is negative.
+     */
+    public List<PostalCode> suggest(String prefix, int limit) {
+        List<PostalCode> suggestions = prefixIndex.findByPostalCode(prefix, limit);
+        if (suggestions.size() < limit) {
+            // Fetch extra city matches to make up for the ones already suggested by postal code.
+            int cityLimit = (int) Math.min(Integer.MAX_VALUE, (long) limit + suggestions.size());
+            for (PostalCode postalCode : prefixIndex.findByCity(prefix, cityLimit)) {
+                if (suggestions.size() == limit) {
+                    break;
+                }
+                if (!suggestions.contains(postalCode)) {
+                    suggestions.add(postalCode);
+                }
             }
         }
+        if (suggestions.isEmpty()) {
+            return prefixIndex.findSimilar(prefix, limit);
+        }
+        return suggestions;
+    }
 
-        System.out.println("Checked " + checkedPostalCodes + " postal codes.");
-        return results;
+    /**
+     * Returns the prefix index over the parsed postal codes and city names.
+     *
+     * @return The prefix index, empty until {@link #parse()} is called.
+     */
+    public PrefixIndex getPrefixIndex() {
+        return prefixIndex;
     }
 
     /**
@@ -253,16 +454,24 @@ public class PostalCodeController {
      * @return The distance in kilometers between the two points.
      */
     public static double haversine(double latitude1, double longitude1, double latitude2, double longitude2){
-        double distanceLongitude = Math.toRadians(latitude2-latitude1);
-        double distanceLatitude = Math.toRadians(longitude2-longitude1);
+        double distanceLatitude = Math.toRadians(latitude2-latitude1);
+        double distanceLongitude = Math.toRadians(longitude2-longitude1);
 
         latitude1 = Math.toRadians(latitude1);
         latitude2 = Math.toRadians(latitude2);
 
         double a = Math.pow(Math.sin(distanceLatitude/2),2)+Math.pow(Math.sin(distanceLongitude/2),2)*Math.cos(latitude1)*Math.cos(latitude2);
-        double earthRadius = 6371;
         double c = 2* Math.asin(Math.sqrt(a));
-        return earthRadius * c;
+        return EARTH_RADIUS * c;
+    }
+
+    /**
+     * Returns the spatial index over the parsed postal codes.
+     *
+     * @return The spatial index, empty until {@link #parse()} is called.
+     */
+    public SpatialIndex getSpatialIndex() {
+        return spatialIndex;
     }
 
 }
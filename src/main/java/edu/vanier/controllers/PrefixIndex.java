@@ -0,0 +1,296 @@
+package edu.vanier.controllers;
+
+import edu.vanier.models.PostalCode;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Prefix index over postal codes and city names, used for as-you-type suggestions.
+ * Keys are kept in sorted arrays so a lookup is a binary search followed by a scan of the matching range.
+ * Keys are normalized (upper case, accents removed) so accented city names match unaccented input,
+ * and every word of a city name is indexed so that "iqa" matches "Outer Nunavut (Iqaluit)".
+ * When nothing starts with the typed text, {@link #findSimilar} scans the keys for a one-character typo.
+ */
+public class PrefixIndex {
+    /**
+     * Shortest text for which typos are looked for; shorter texts are within one edit of too many keys.
+     */
+    public static final int MIN_FUZZY_LENGTH = 3;
+
+    private final String[] postalCodeKeys;
+    private final PostalCode[] postalCodeValues;
+    private final String[] cityKeys;
+    private final PostalCode[] cityValues;
+
+    /**
+     * Constructs a PrefixIndex over the given postal codes.
+     *
+     * @param postalCodes The postal codes to index.
+     */
+    public PrefixIndex(Collection<PostalCode> postalCodes) {
+        List<Entry> byPostalCode = new ArrayList<>(postalCodes.size());
+        List<Entry> byCity = new ArrayList<>(postalCodes.size() * 2);
+
+        for (PostalCode postalCode : postalCodes) {
+            byPostalCode.add(new Entry(normalize(postalCode.getPostalCode()), postalCode));
+            for (String word : normalize(postalCode.getCity()).split("[^A-Z0-9]+")) {
+                if (!word.isEmpty()) {
+                    byCity.add(new Entry(word, postalCode));
+                }
+            }
+        }
+
+        byPostalCode.sort(Comparator.comparing((Entry entry) -> entry.key));
+        byCity.sort(Comparator.comparing((Entry entry) -> entry.key)
+                .thenComparing(entry -> entry.postalCode.getPostalCode()));
+
+        postalCodeKeys = new String[byPostalCode.size()];
+        postalCodeValues = new PostalCode[byPostalCode.size()];
+        fill(byPostalCode, postalCodeKeys, postalCodeValues);
+
+        cityKeys = new String[byCity.size()];
+        cityValues = new PostalCode[byCity.size()];
+        fill(byCity, cityKeys, cityValues);
+    }
+
+    /**
+     * Finds the postal codes starting with the given prefix, in alphabetical order.
+     *
+     * @param prefix The beginning of a postal code, e.g. "H1".
+     * @param limit  The maximum number of results to return.
+     * @return The matching postal codes.
+     * @throws IllegalArgumentException if the limit is negative.
+     */
+    public List<PostalCode> findByPostalCode(String prefix, int limit) {
+        return find(postalCodeKeys, postalCodeValues, normalize(prefix), limit);
+    }
+
+    /**
+     * Finds the postal codes whose city has a word starting with the given prefix.
+     *
+     * @param prefix The beginning of a word of a city name, e.g. "mont".
+     * @param limit  The maximum number of results to return.
+     * @return The matching postal codes.
+     * @throws IllegalArgumentException if the limit is negative.
+     */
+    public List<PostalCode> findByCity(String prefix, int limit) {
+        return find(cityKeys, cityValues, normalize(prefix), limit);
+    }
+
+    /**
+     * Finds the postal codes whose postal code or city word starts with the given text give or take one typo:
+     * one character replaced, added or removed, or two adjacent characters swapped, e.g. "H1F" or "1HE"
+     * for "H1E" and "montrael" for "Montreal". Every key is scanned, so this is meant as a fallback
+     * when {@link #findByPostalCode} and {@link #findByCity} find nothing.
+     * Postal code matches come first, followed by city matches, each in alphabetical order.
+     *
+     * @param text  The text typed so far.
+     * @param limit The maximum number of results to return.
+     * @return The matching postal codes, empty if the text is shorter than {@value #MIN_FUZZY_LENGTH} characters.
+     * @throws IllegalArgumentException if the limit is negative.
+     */
+    public List<PostalCode> findSimilar(String text, int limit) {
+        checkLimit(limit);
+        List<PostalCode> results = new ArrayList<>(Math.min(limit, 16));
+        String normalized = normalize(text);
+        if (normalized.length() < MIN_FUZZY_LENGTH) {
+            return results;
+        }
+
+        scanSimilar(postalCodeKeys, postalCodeValues, normalized, limit, results);
+        scanSimilar(cityKeys, cityValues, normalized, limit, results);
+        return results;
+    }
+
+    /**
+     * Gets the number of postal codes in the index.
+     *
+     * @return The number of indexed postal codes.
+     */
+    public int size() {
+        return postalCodeKeys.length;
+    }
+
+    /**
+     * Scans the range of keys starting with the prefix, skipping postal codes already found.
+     *
+     * @param keys   The sorted keys.
+     * @param values The postal codes matching each key.
+     * @param prefix The normalized prefix.
+     * @param limit  The maximum number of results to return.
+     * @return The matching postal codes.
+     */
+    private static List<PostalCode> find(String[] keys, PostalCode[] values, String prefix, int limit) {
+        checkLimit(limit);
+        List<PostalCode> results = new ArrayList<>(Math.min(limit, 16));
+        if (prefix.isEmpty()) {
+            return results;
+        }
+
+        for (int i = lowerBound(keys, prefix); i < keys.length && results.size() < limit; i++) {
+            if (!keys[i].startsWith(prefix)) {
+                break;
+            }
+            if (!results.contains(values[i])) {
+                results.add(values[i]);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Scans every key for one that starts with the text give or take one typo,
+     * adding the postal codes not already found until the limit is reached.
+     *
+     * @param keys    The sorted keys.
+     * @param values  The postal codes matching each key.
+     * @param text    The normalized text.
+     * @param limit   The maximum number of results.
+     * @param results The list receiving the matching postal codes.
+     */
+    private static void scanSimilar(String[] keys, PostalCode[] values, String text, int limit, List<PostalCode> results) {
+        for (int i = 0; i < keys.length && results.size() < limit; i++) {
+            if (startsWithinOneEdit(keys[i], text) && !results.contains(values[i])) {
+                results.add(values[i]);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a key starts with the text give or take one edit, by comparing the text
+     * with the prefixes of the key that are one character shorter, as long, and one character longer.
+     *
+     * @param key  The key.
+     * @param text The normalized text.
+     * @return true if one of those prefixes is within one edit of the text.
+     */
+    private static boolean startsWithinOneEdit(String key, String text) {
+        int maxLength = Math.min(text.length() + 1, key.length());
+        for (int length = text.length() - 1; length <= maxLength; length++) {
+            if (isWithinOneEdit(text, key, length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether the text and the first characters of the key differ by at most one edit:
+     * a replaced, added or removed character, or two swapped adjacent characters.
+     *
+     * @param text   The text.
+     * @param key    The key.
+     * @param length The number of characters of the key to compare, at most its length.
+     * @return true if the text is within one edit of the prefix of the key.
+     */
+    private static boolean isWithinOneEdit(String text, String key, int length) {
+        int textLength = text.length();
+        if (Math.abs(textLength - length) > 1) {
+            return false;
+        }
+
+        int i = 0;
+        while (i < textLength && i < length && text.charAt(i) == key.charAt(i)) {
+            i++;
+        }
+        if (i == textLength && i == length) {
+            return true;
+        }
+
+        if (textLength == length) {
+            boolean replaced = text.regionMatches(i + 1, key, i + 1, length - i - 1);
+            boolean swapped = i + 1 < length && text.charAt(i) == key.charAt(i + 1)
+                    && text.charAt(i + 1) == key.charAt(i)
+                    && text.regionMatches(i + 2, key, i + 2, length - i - 2);
+            return replaced || swapped;
+        }
+        if (textLength > length) {
+            return text.regionMatches(i + 1, key, i, length - i);
+        }
+        return text.regionMatches(i, key, i + 1, length - i - 1);
+    }
+
+    /**
+     * Checks that a maximum number of results is usable.
+     *
+     * @param limit The maximum number of results.
+     * @throws IllegalArgumentException if the limit is negative.
+     */
+    private static void checkLimit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("The number of suggestions must not be negative: " + limit);
+        }
+    }
+
+    /**
+     * Finds the position of the first key that is not less than the given key.
+     *
+     * @param keys The sorted keys.
+     * @param key  The key to search for.
+     * @return The position of the first key greater than or equal to the given key.
+     */
+    private static int lowerBound(String[] keys, String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle].compareTo(key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Normalizes a key for lookups: removes accents, converts to upper case and trims it.
+     *
+     * @param text The text to normalize.
+     * @return The normalized key, or an empty string if the text is null.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String trimmed = text.trim();
+        for (int i = 0; i < trimmed.length(); i++) {
+            if (trimmed.charAt(i) > 0x7F) {
+                String decomposed = Normalizer.normalize(trimmed, Normalizer.Form.NFD);
+                return decomposed.replaceAll("\\p{M}", "").toUpperCase(Locale.ROOT);
+            }
+        }
+        return trimmed.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Copies the sorted entries into the key and value arrays.
+     *
+     * @param entries The sorted entries.
+     * @param keys    The array receiving the keys.
+     * @param values  The array receiving the postal codes.
+     */
+    private static void fill(List<Entry> entries, String[] keys, PostalCode[] values) {
+        for (int i = 0; i < entries.size(); i++) {
+            keys[i] = entries.get(i).key;
+            values[i] = entries.get(i).postalCode;
+        }
+    }
+
+    /**
+     * A key and the postal code it points to, used while building the index.
+     */
+    private static class Entry {
+        private final String key;
+        private final PostalCode postalCode;
+
+        Entry(String key, PostalCode postalCode) {
+            this.key = key;
+            this.postalCode = postalCode;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package edu.vanier.controllers;
+
+import edu.vanier.models.PostalCode;
+import edu.vanier.models.Route;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Computes multi-stop routes on top of a {@link PostalCodeController}.
+ * Supports measuring the length of a route in the given order, and reordering the stops
+ * with a nearest-neighbour tour improved by 2-opt. The distance matrix of the stops is cached,
+ * so optimizing the same list of stops again does not recompute it. The cache is keyed on the
+ * resolved PostalCode objects, so after the controller parses its file again the stops resolve to
+ * new objects and their matrix is recomputed from the new coordinates.
+ */
+public class RoutePlanner {
+    private static final int MATRIX_CACHE_SIZE = 16;
+
+    private final PostalCodeController controller;
+    private final Map<List<PostalCode>, double[]> matrixCache = new LinkedHashMap<>(MATRIX_CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<PostalCode>, double[]> eldest) {
+            return size() > MATRIX_CACHE_SIZE;
+        }
+    };
+
+    /**
+     * Constructs a RoutePlanner using the postal codes parsed by the given controller.
+     *
+     * @param controller The controller holding the postal code data.
+     */
+    public RoutePlanner(PostalCodeController controller) {
+        this.controller = controller;
+    }
+
+    /**
+     * Calculates the total length of a route visiting the given postal codes in order.
+     * Only the distances between consecutive stops are computed; no distance matrix is built.
+     *
+     * @param stops The postal codes to visit, in order.
+     * @return The total distance in kilometers, or -1 if one or more postal codes are not found.
+     */
+    public double routeLength(List<String> stops) {
+        PostalCode[] codes = lookup(stops);
+        if (codes == null) {
+            return -1;
+        }
+
+        double total = 0;
+        for (int i = 1; i < codes.length; i++) {
+            total += distance(codes[i - 1], codes[i]);
+        }
+        return total;
+    }
+
+    /**
+     * Reorders the given stops to shorten the route, keeping the first stop as the starting point.
+     * The route is built with the nearest-neighbour heuristic and then improved with 2-opt moves
+     * until no move shortens it further. The result is a good route, not necessarily the shortest one.
+     * The distance matrix of the stops is kept in a small cache of the most recently used stop lists,
+     * keyed by the stops in the given order.
+     *
+     * @param stops The postal codes to visit; the first one is the starting point.
+     * @return The optimized route, or null if one or more postal codes are not found.
+     */
+    public Route optimizeRoute(List<String> stops) {
+        PostalCode[] codes = lookup(stops);
+        if (codes == null) {
+            return null;
+        }
+
+        int n = codes.length;
+        double[] matrix = cachedDistanceMatrix(codes);
+        int[] order = nearestNeighbour(matrix, n);
+        twoOpt(order, matrix, n);
+
+        List<PostalCode> orderedStops = new ArrayList<>(n);
+        double total = 0;
+        for (int i = 0; i < n; i++) {
+            orderedStops.add(codes[order[i]]);
+            if (i > 0) {
+                total += matrix[order[i - 1] * n + order[i]];
+            }
+        }
+        return new Route(orderedStops, total);
+    }
+
+    /**
+     * Looks up the postal codes of a route.
+     *
+     * @param stops The postal code strings.
+     * @return The matching postal codes, or null if one or more are not found.
+     */
+    private PostalCode[] lookup(List<String> stops) {
+        PostalCode[] codes = new PostalCode[stops.size()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = controller.getPostalCodes().get(stops.get(i));
+            if (codes[i] == null) {
+                System.out.println("The postal code '" + stops.get(i) + "' does not exist in the database.");
+                return null;
+            }
+        }
+        return codes;
+    }
+
+    /**
+     * Gets the distance matrix of the stops from the cache, computing and caching it if needed.
+     *
+     * PostalCode does not override equals(), so two keys match only if they hold the same objects.
+     *
+     * @param codes The postal codes of the stops, used as the cache key.
+     * @return The n by n distance matrix; it is shared and must not be modified.
+     */
+    private double[] cachedDistanceMatrix(PostalCode[] codes) {
+        List<PostalCode> key = List.of(codes);
+        synchronized (matrixCache) {
+            double[] matrix = matrixCache.get(key);
+            if (matrix != null) {
+                return matrix;
+            }
+        }
+
+        double[] matrix = distanceMatrix(codes);
+        synchronized (matrixCache) {
+            matrixCache.put(key, matrix);
+        }
+        return matrix;
+    }
+
+    /**
+     * Computes the distances between every pair of stops, stored row by row in a flat array.
+     *
+     * @param codes The stops.
+     * @return The n by n distance matrix, where the distance from i to j is at index i * n + j.
+     */
+    private static double[] distanceMatrix(PostalCode[] codes) {
+        int n = codes.length;
+        double[] matrix = new double[n * n];
+        IntStream.range(0, n).parallel().forEach(i -> {
+            for (int j = i + 1; j < n; j++) {
+                double distance = distance(codes[i], codes[j]);
+                matrix[i * n + j] = distance;
+                matrix[j * n + i] = distance;
+            }
+        });
+        return matrix;
+    }
+
+    /**
+     * Builds a route starting at stop 0 by always visiting the closest stop not yet visited.
+     *
+     * @param matrix The distance matrix.
+     * @param n      The number of stops.
+     * @return The visiting order, as indexes into the stops.
+     */
+    private static int[] nearestNeighbour(double[] matrix, int n) {
+        int[] order = new int[n];
+        boolean[] visited = new boolean[n];
+        if (n == 0) {
+            return order;
+        }
+        visited[0] = true;
+
+        for (int i = 1; i < n; i++) {
+            int current = order[i - 1];
+            int next = -1;
+            for (int candidate = 0; candidate < n; candidate++) {
+                if (!visited[candidate]
+                        && (next == -1 || matrix[current * n + candidate] < matrix[current * n + next])) {
+                    next = candidate;
+                }
+            }
+            order[i] = next;
+            visited[next] = true;
+        }
+        return order;
+    }
+
+    /**
+     * Improves a route in place by reversing segments while doing so shortens it.
+     * The first stop stays fixed and the route is open, so it does not return to its start.
+     *
+     * @param order  The visiting order to improve.
+     * @param matrix The distance matrix.
+     * @param n      The number of stops.
+     */
+    private static void twoOpt(int[] order, double[] matrix, int n) {
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int i = 1; i < n - 1; i++) {
+                int before = order[i - 1];
+                int first = order[i];
+                for (int j = i + 1; j < n; j++) {
+                    int last = order[j];
+                    double delta = matrix[before * n + last] - matrix[before * n + first];
+                    if (j < n - 1) {
+                        int after = order[j + 1];
+                        delta += matrix[first * n + after] - matrix[last * n + after];
+                    }
+                    if (delta < -1e-9) {
+                        reverse(order, i, j);
+                        first = order[i];
+                        improved = true;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Reverses the stops between two positions, inclusive.
+     *
+     * @param order The visiting order.
+     * @param from  The first position to reverse.
+     * @param to    The last position to reverse.
+     */
+    private static void reverse(int[] order, int from, int to) {
+        while (from < to) {
+            int swap = order[from];
+            order[from++] = order[to];
+            order[to--] = swap;
+        }
+    }
+
+    /**
+     * Calculates the distance in kilometers between two postal codes.
+     *
+     * @param from The first postal code.
+     * @param to   The second postal code.
+     * @return The distance in kilometers.
+     */
+    private static double distance(PostalCode from, PostalCode to) {
+        return PostalCodeController.haversine(from.getLatitude(), from.getLongitude(),
+                to.getLatitude(), to.getLongitude());
+    }
+}
@@ -0,0 +1,173 @@
+package edu.vanier.controllers;
+
+import edu.vanier.models.PostalCode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.ObjDoubleConsumer;
+
+/**
+ * Spatial index over postal codes, used for coordinate-based queries.
+ * The globe is divided into a grid of one degree cells, and the postal codes of each cell are stored
+ * contiguously in a flat array. A radius query only scans the cells overlapping the bounding box of the
+ * search circle, so cells far from the point are never visited. The index is immutable once built and
+ * can be queried from many threads at once.
+ */
+public class SpatialIndex {
+    private static final double CELL_SIZE = 1.0;
+    private static final int ROWS = (int) (180 / CELL_SIZE);
+    private static final int COLUMNS = (int) (360 / CELL_SIZE);
+    private static final double INITIAL_NEAREST_RADIUS = 25;
+
+    private final int[] cellStart = new int[ROWS * COLUMNS + 1];
+    private final PostalCode[] entries;
+    private final double[] latitudes;
+    private final double[] longitudes;
+
+    /**
+     * Constructs a SpatialIndex over the given postal codes.
+     *
+     * @param postalCodes The postal codes to index.
+     */
+    public SpatialIndex(Collection<PostalCode> postalCodes) {
+        // Counting sort by cell: count the postal codes per cell, then place each one in its cell's range.
+        for (PostalCode postalCode : postalCodes) {
+            cellStart[cell(postalCode.getLatitude(), postalCode.getLongitude()) + 1]++;
+        }
+        for (int i = 1; i < cellStart.length; i++) {
+            cellStart[i] += cellStart[i - 1];
+        }
+
+        entries = new PostalCode[postalCodes.size()];
+        latitudes = new double[entries.length];
+        longitudes = new double[entries.length];
+        int[] next = new int[ROWS * COLUMNS];
+        System.arraycopy(cellStart, 0, next, 0, next.length);
+        for (PostalCode postalCode : postalCodes) {
+            int position = next[cell(postalCode.getLatitude(), postalCode.getLongitude())]++;
+            entries[position] = postalCode;
+            latitudes[position] = postalCode.getLatitude();
+            longitudes[position] = postalCode.getLongitude();
+        }
+    }
+
+    /**
+     * Finds the postal code closest to the given point.
+     * Searches within a small radius first and doubles it until a postal code is found.
+     *
+     * @param latitude  The latitude of the point.
+     * @param longitude The longitude of the point.
+     * @return The closest postal code, or null if the index is empty or the coordinates are invalid.
+     */
+    public PostalCode nearest(double latitude, double longitude) {
+        if (entries.length == 0 || !isValid(latitude, longitude)) {
+            return null;
+        }
+
+        Nearest nearest = new Nearest();
+        double radius = INITIAL_NEAREST_RADIUS;
+        while (nearest.postalCode == null) {
+            forEachWithin(latitude, longitude, radius, nearest);
+            radius *= 2;
+        }
+        return nearest.postalCode;
+    }
+
+    /**
+     * Finds the postal codes within a given radius of a point.
+     *
+     * @param latitude  The latitude of the point.
+     * @param longitude The longitude of the point.
+     * @param radius    The radius in kilometers.
+     * @return The postal codes within the radius, in no particular order.
+     */
+    public List<PostalCode> within(double latitude, double longitude, double radius) {
+        List<PostalCode> results = new ArrayList<>();
+        forEachWithin(latitude, longitude, radius, (postalCode, distance) -> results.add(postalCode));
+        return results;
+    }
+
+    /**
+     * Calls the given action for every postal code within a given radius of a point,
+     * along with its distance to the point. Nothing is called if the coordinates are invalid.
+     *
+     * @param latitude  The latitude of the point.
+     * @param longitude The longitude of the point.
+     * @param radius    The radius in kilometers.
+     * @param action    The action receiving each postal code and its distance in kilometers.
+     */
+    public void forEachWithin(double latitude, double longitude, double radius, ObjDoubleConsumer<PostalCode> action) {
+        if (!isValid(latitude, longitude) || !(radius >= 0)) {
+            return;
+        }
+
+        // Bounding box of the search circle; it spans all longitudes when the circle contains a pole.
+        double angularRadius = radius / PostalCodeController.EARTH_RADIUS;
+        double latitudeSpan = Math.toDegrees(angularRadius);
+        double minLatitude = latitude - latitudeSpan;
+        double maxLatitude = latitude + latitudeSpan;
+        int firstColumn = 0;
+        int lastColumn = COLUMNS - 1;
+
+        if (minLatitude > -90 && maxLatitude < 90) {
+            double longitudeSpan = Math.toDegrees(Math.asin(
+                    Math.min(1, Math.sin(angularRadius) / Math.cos(Math.toRadians(latitude)))));
+            if (longitudeSpan < 180 - CELL_SIZE) {
+                firstColumn = (int) Math.floor((longitude - longitudeSpan + 180) / CELL_SIZE);
+                lastColumn = (int) Math.floor((longitude + longitudeSpan + 180) / CELL_SIZE);
+            }
+        }
+
+        int firstRow = row(minLatitude);
+        int lastRow = row(maxLatitude);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int cell = row * COLUMNS + Math.floorMod(column, COLUMNS);
+                for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                    double distance = PostalCodeController.haversine(latitude, longitude, latitudes[i], longitudes[i]);
+                    if (distance <= radius) {
+                        action.accept(entries[i], distance);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of postal codes in the index.
+     *
+     * @return The number of indexed postal codes.
+     */
+    public int size() {
+        return entries.length;
+    }
+
+    private static boolean isValid(double latitude, double longitude) {
+        return latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180;
+    }
+
+    private static int row(double latitude) {
+        return Math.max(0, Math.min(ROWS - 1, (int) Math.floor((latitude + 90) / CELL_SIZE)));
+    }
+
+    private static int cell(double latitude, double longitude) {
+        int column = Math.floorMod((int) Math.floor((longitude + 180) / CELL_SIZE), COLUMNS);
+        return row(latitude) * COLUMNS + column;
+    }
+
+    /**
+     * Keeps track of the closest postal code seen during a radius query.
+     */
+    private static class Nearest implements ObjDoubleConsumer<PostalCode> {
+        private PostalCode postalCode;
+        private double distance = Double.MAX_VALUE;
+
+        @Override
+        public void accept(PostalCode candidate, double candidateDistance) {
+            if (candidateDistance < distance) {
+                postalCode = candidate;
+                distance = candidateDistance;
+            }
+        }
+    }
+}
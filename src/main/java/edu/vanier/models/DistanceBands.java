@@ -0,0 +1,240 @@
+package edu.vanier.models;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Counts of postal codes around an origin, by distance band and grouped by province or city.
+ * Bands are given by their upper limits in kilometers: with limits 25, 50 and 100, band 0 holds
+ * postal codes up to 25 km away, band 1 those between 25 and 50 km, and band 2 those between 50 and 100 km.
+ * The origin is either a postal code or an arbitrary point, such as a depot.
+ */
+public class DistanceBands {
+
+    /**
+     * How postal codes are grouped when counting them.
+     */
+    public enum GroupBy {
+        PROVINCE,
+        CITY;
+
+        /**
+         * Gets the group a postal code belongs to.
+         *
+         * @param postalCode The postal code.
+         * @return The province or city of the postal code.
+         */
+        public String keyOf(PostalCode postalCode) {
+            return this == PROVINCE ? postalCode.getProvince() : postalCode.getCity();
+        }
+    }
+
+    private final PostalCode origin;
+    private final double originLatitude;
+    private final double originLongitude;
+    private final double[] bandLimits;
+    private final GroupBy groupBy;
+    private final Map<String, int[]> counts = new TreeMap<>();
+    private final int[] totals;
+
+    /**
+     * Constructs an empty DistanceBands instance for the specified origin.
+     *
+     * @param origin     The postal code distances are measured from.
+     * @param bandLimits The upper limit of each band in kilometers, in increasing order.
+     * @param groupBy    How postal codes are grouped.
+     * @throws IllegalArgumentException if there are no bands or the limits are not increasing.
+     */
+    public DistanceBands(PostalCode origin, double[] bandLimits, GroupBy groupBy) {
+        this(origin, origin.getLatitude(), origin.getLongitude(), bandLimits, groupBy);
+    }
+
+    /**
+     * Constructs an empty DistanceBands instance for an arbitrary point.
+     *
+     * @param latitude   The latitude of the point distances are measured from.
+     * @param longitude  The longitude of the point distances are measured from.
+     * @param bandLimits The upper limit of each band in kilometers, in increasing order.
+     * @param groupBy    How postal codes are grouped.
+     * @throws IllegalArgumentException if there are no bands or the limits are not increasing.
+     */
+    public DistanceBands(double latitude, double longitude, double[] bandLimits, GroupBy groupBy) {
+        this(null, latitude, longitude, bandLimits, groupBy);
+    }
+
+    private DistanceBands(PostalCode origin, double latitude, double longitude, double[] bandLimits, GroupBy groupBy) {
+        validateBandLimits(bandLimits);
+        this.origin = origin;
+        this.originLatitude = latitude;
+        this.originLongitude = longitude;
+        this.bandLimits = bandLimits.clone();
+        this.groupBy = groupBy;
+        this.totals = new int[bandLimits.length];
+    }
+
+    /**
+     * Checks that band limits are usable: at least one band, with positive and increasing limits.
+     *
+     * @param bandLimits The upper limit of each band in kilometers.
+     * @throws IllegalArgumentException if there are no bands or the limits are not increasing.
+     */
+    public static void validateBandLimits(double[] bandLimits) {
+        if (bandLimits.length == 0) {
+            throw new IllegalArgumentException("At least one distance band is required.");
+        }
+        for (int i = 0; i < bandLimits.length; i++) {
+            if (!(bandLimits[i] > 0) || (i > 0 && bandLimits[i] <= bandLimits[i - 1])) {
+                throw new IllegalArgumentException("Distance band limits must be positive and increasing.");
+            }
+        }
+    }
+
+    /**
+     * Counts a postal code in the band matching its distance to the origin.
+     * Postal codes beyond the last band are ignored.
+     *
+     * @param postalCode The postal code.
+     * @param distance   Its distance to the origin in kilometers.
+     */
+    public void add(PostalCode postalCode, double distance) {
+        int band = bandOf(distance);
+        if (band < 0) {
+            return;
+        }
+        counts.computeIfAbsent(groupBy.keyOf(postalCode), key -> new int[bandLimits.length])[band]++;
+        totals[band]++;
+    }
+
+    /**
+     * Gets the postal code distances are measured from.
+     *
+     * @return The origin, or null if the origin is an arbitrary point.
+     */
+    public PostalCode getOrigin() {
+        return origin;
+    }
+
+    /**
+     * Gets the latitude of the origin.
+     *
+     * @return The latitude distances are measured from.
+     */
+    public double getOriginLatitude() {
+        return originLatitude;
+    }
+
+    /**
+     * Gets the longitude of the origin.
+     *
+     * @return The longitude distances are measured from.
+     */
+    public double getOriginLongitude() {
+        return originLongitude;
+    }
+
+    /**
+     * Gets the upper limit of each band in kilometers.
+     *
+     * @return A copy of the band limits.
+     */
+    public double[] getBandLimits() {
+        return bandLimits.clone();
+    }
+
+    /**
+     * Gets how postal codes are grouped.
+     *
+     * @return The grouping.
+     */
+    public GroupBy getGroupBy() {
+        return groupBy;
+    }
+
+    /**
+     * Gets the provinces or cities that have at least one postal code in a band, in alphabetical order.
+     *
+     * @return The groups.
+     */
+    public Set<String> getGroups() {
+        return Collections.unmodifiableSet(counts.keySet());
+    }
+
+    /**
+     * Gets the number of postal codes of a group in each band.
+     *
+     * @param group The province or city.
+     * @return The count per band, all zero if the group has no postal code in any band.
+     */
+    public int[] getCounts(String group) {
+        int[] groupCounts = counts.get(group);
+        return groupCounts == null ? new int[bandLimits.length] : groupCounts.clone();
+    }
+
+    /**
+     * Gets the number of postal codes of a group within the upper limit of each band,
+     * e.g. within 25 km, within 50 km and within 100 km.
+     *
+     * @param group The province or city.
+     * @return The cumulative count per band.
+     */
+    public int[] getCumulativeCounts(String group) {
+        int[] cumulative = getCounts(group);
+        for (int i = 1; i < cumulative.length; i++) {
+            cumulative[i] += cumulative[i - 1];
+        }
+        return cumulative;
+    }
+
+    /**
+     * Gets the number of postal codes of all groups in each band.
+     *
+     * @return The total count per band.
+     */
+    public int[] getTotals() {
+        return totals.clone();
+    }
+
+    /**
+     * Finds the band of a distance with a binary search over the band limits.
+     *
+     * @param distance The distance in kilometers.
+     * @return The index of the band, or -1 if the distance is beyond the last band.
+     */
+    private int bandOf(double distance) {
+        int low = 0;
+        int high = bandLimits.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (bandLimits[middle] < distance) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low == bandLimits.length ? -1 : low;
+    }
+
+    /**
+     * Returns a string representation of the DistanceBands object.
+     *
+     * @return A string with the counts per band of every group.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("DistanceBands{origin=");
+        if (origin != null) {
+            builder.append(origin.getPostalCode());
+        } else {
+            builder.append('(').append(originLatitude).append(", ").append(originLongitude).append(')');
+        }
+        builder.append(", bandLimits=").append(Arrays.toString(bandLimits))
+                .append(", totals=").append(Arrays.toString(totals));
+        for (Map.Entry<String, int[]> entry : counts.entrySet()) {
+            builder.append(", ").append(entry.getKey()).append('=').append(Arrays.toString(entry.getValue()));
+        }
+        return builder.append('}').toString();
+    }
+}
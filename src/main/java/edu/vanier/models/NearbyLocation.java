@@ -0,0 +1,53 @@
+package edu.vanier.models;
+
+/**
+ * Represents a postal code found by a radius search, along with its distance to the search point.
+ * The distance is kept here rather than in the shared PostalCode object, so concurrent searches
+ * cannot overwrite each other's distances.
+ */
+public class NearbyLocation {
+    private final PostalCode postalCode;
+    private final double distance;
+
+    /**
+     * Constructs a NearbyLocation instance.
+     *
+     * @param postalCode The postal code found.
+     * @param distance   Its distance to the search point in kilometers.
+     */
+    public NearbyLocation(PostalCode postalCode, double distance) {
+        this.postalCode = postalCode;
+        this.distance = distance;
+    }
+
+    /**
+     * Gets the postal code found.
+     *
+     * @return The postal code.
+     */
+    public PostalCode getPostalCode() {
+        return postalCode;
+    }
+
+    /**
+     * Gets the distance to the search point in kilometers.
+     *
+     * @return The distance.
+     */
+    public double getDistance() {
+        return distance;
+    }
+
+    /**
+     * Returns a string representation of the NearbyLocation object.
+     *
+     * @return A string with the postal code and its distance.
+     */
+    @Override
+    public String toString() {
+        return "NearbyLocation{" +
+                "postalCode='" + postalCode.getPostalCode() + '\'' +
+                ", distance=" + distance +
+                '}';
+    }
+}
@@ -78,15 +78,11 @@ public class PostalCode {
 
     /**
      * Gets the longitude coordinate of the postal code.
-     * Throws an exception if the longitude is not within the range of -180 to 180 degrees.
+     * The range is checked once while parsing, see {@code PostalCodeController#parse()}.
      *
      * @return The longitude value.
-     * @throws IllegalArgumentException if longitude is out of valid range (-180 to 180).
      */
     public double getLongitude() {
-        if (longitude < -180 || longitude > 180) {
-            throw new IllegalArgumentException("Longitude must be between -180 and 180.");
-        }
         return longitude;
     }
 
@@ -0,0 +1,58 @@
+package edu.vanier.models;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents a route visiting a sequence of postal codes in order, along with its total length.
+ */
+public class Route {
+    private final List<PostalCode> stops;
+    private final double totalDistance;
+
+    /**
+     * Constructs a Route instance with the specified stops and total length.
+     *
+     * @param stops         The postal codes visited, in visiting order.
+     * @param totalDistance The total length of the route in kilometers.
+     */
+    public Route(List<PostalCode> stops, double totalDistance) {
+        this.stops = Collections.unmodifiableList(stops);
+        this.totalDistance = totalDistance;
+    }
+
+    /**
+     * Gets the postal codes visited by the route, in visiting order.
+     *
+     * @return The stops of the route.
+     */
+    public List<PostalCode> getStops() {
+        return stops;
+    }
+
+    /**
+     * Gets the total length of the route in kilometers.
+     *
+     * @return The total distance.
+     */
+    public double getTotalDistance() {
+        return totalDistance;
+    }
+
+    /**
+     * Returns a string representation of the Route object.
+     *
+     * @return A string listing the postal codes visited and the total distance.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("Route{stops=[");
+        for (int i = 0; i < stops.size(); i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(stops.get(i).getPostalCode());
+        }
+        return builder.append("], totalDistance=").append(totalDistance).append('}').toString();
+    }
+}
@@ -0,0 +1,251 @@
+package edu.vanier.models;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Summary of the validation stage run while parsing the postal codes CSV file.
+ * Keeps a count of rejected lines per error type along with a few sample line numbers,
+ * so problems can be reported once instead of one message per bad line. Every problem found on a line
+ * is counted: a line with both an empty city and an invalid latitude counts for both types.
+ * The rejected lines themselves are quarantined in the report so they can be inspected or fixed.
+ */
+public class ValidationReport {
+
+    /**
+     * The kinds of problems that cause a CSV line to be rejected.
+     */
+    public enum ErrorType {
+        COLUMN_COUNT("Incorrect number of columns"),
+        NUMBER_FORMAT("Latitude or longitude is not a number"),
+        POSTAL_CODE("Postal code is not 3 characters long"),
+        CITY("City is empty"),
+        PROVINCE("Province is empty"),
+        LATITUDE("Latitude is not between -90 and 90"),
+        LONGITUDE("Longitude is not between -180 and 180");
+
+        private final String description;
+
+        ErrorType(String description) {
+            this.description = description;
+        }
+
+        /**
+         * Gets a human-readable description of the error type.
+         *
+         * @return The description.
+         */
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    /**
+     * Maximum number of sample line numbers kept for each error type.
+     */
+    public static final int MAX_SAMPLES = 10;
+
+    private final Map<ErrorType, Integer> errorCounts = new EnumMap<>(ErrorType.class);
+    private final Map<ErrorType, List<Integer>> sampleLines = new EnumMap<>(ErrorType.class);
+    private final List<RejectedLine> quarantine = new ArrayList<>();
+    private final List<Integer> duplicateLines = new ArrayList<>();
+    private int linesRead;
+    private int accepted;
+
+    /**
+     * Records a line that passed validation.
+     */
+    public void recordAccepted() {
+        linesRead++;
+        accepted++;
+    }
+
+    /**
+     * Records that a previously accepted line was overridden by a later line with the same postal code.
+     * The overridden line is no longer counted as accepted.
+     *
+     * @param lineNumber The line number of the overridden line in the CSV file.
+     */
+    public void recordDuplicate(int lineNumber) {
+        accepted--;
+        duplicateLines.add(lineNumber);
+    }
+
+    /**
+     * Records a line that was rejected by the validation stage and quarantines its raw fields.
+     * The line is counted once for each of its error types.
+     *
+     * @param errorTypes The problems found on the line; must not be empty.
+     * @param lineNumber The line number in the CSV file.
+     * @param fields     The raw fields of the line, as read from the CSV file.
+     */
+    public void recordRejected(Set<ErrorType> errorTypes, int lineNumber, String[] fields) {
+        linesRead++;
+        quarantine.add(new RejectedLine(errorTypes, lineNumber, fields));
+        for (ErrorType errorType : errorTypes) {
+            errorCounts.merge(errorType, 1, Integer::sum);
+            List<Integer> samples = sampleLines.computeIfAbsent(errorType, type -> new ArrayList<>());
+            if (samples.size() < MAX_SAMPLES) {
+                samples.add(lineNumber);
+            }
+        }
+    }
+
+    /**
+     * Gets the total number of lines read from the CSV file.
+     *
+     * @return The number of lines read.
+     */
+    public int getLinesRead() {
+        return linesRead;
+    }
+
+    /**
+     * Gets the number of lines that passed validation and are in the postal codes map,
+     * not counting lines overridden by a later duplicate.
+     *
+     * @return The number of accepted lines.
+     */
+    public int getAccepted() {
+        return accepted;
+    }
+
+    /**
+     * Gets the number of lines that were rejected.
+     *
+     * @return The number of rejected lines.
+     */
+    public int getRejected() {
+        return quarantine.size();
+    }
+
+    /**
+     * Gets the number of valid lines that were overridden by a later line with the same postal code.
+     *
+     * @return The number of duplicate lines.
+     */
+    public int getDuplicates() {
+        return duplicateLines.size();
+    }
+
+    /**
+     * Gets the line numbers of the valid lines overridden by a later line with the same postal code.
+     *
+     * @return The duplicate line numbers, in file order.
+     */
+    public List<Integer> getDuplicateLines() {
+        return Collections.unmodifiableList(duplicateLines);
+    }
+
+    /**
+     * Gets the rejected lines, in file order.
+     *
+     * @return The quarantined lines.
+     */
+    public List<RejectedLine> getQuarantine() {
+        return Collections.unmodifiableList(quarantine);
+    }
+
+    /**
+     * Gets the number of rejected lines that have a given problem.
+     * A line with several problems is counted for each of them.
+     *
+     * @param errorType The error type.
+     * @return The number of lines with that problem.
+     */
+    public int getErrorCount(ErrorType errorType) {
+        return errorCounts.getOrDefault(errorType, 0);
+    }
+
+    /**
+     * Gets up to {@link #MAX_SAMPLES} line numbers rejected for a given error type.
+     *
+     * @param errorType The error type.
+     * @return The sample line numbers, in file order.
+     */
+    public List<Integer> getSampleLines(ErrorType errorType) {
+        return Collections.unmodifiableList(sampleLines.getOrDefault(errorType, Collections.emptyList()));
+    }
+
+    /**
+     * Checks whether every line passed validation.
+     *
+     * @return true if no line was rejected.
+     */
+    public boolean isAllValid() {
+        return getRejected() == 0;
+    }
+
+    /**
+     * Returns a multi-line summary of the validation results.
+     *
+     * @return The counts per error type and their sample line numbers.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("Validation report: ").append(linesRead).append(" lines read, ")
+                .append(accepted).append(" accepted, ").append(getRejected()).append(" rejected, ")
+                .append(getDuplicates()).append(" overridden by a later duplicate.");
+        for (Map.Entry<ErrorType, Integer> entry : errorCounts.entrySet()) {
+            builder.append(System.lineSeparator())
+                    .append("  ").append(entry.getKey().getDescription()).append(": ").append(entry.getValue())
+                    .append(" (sample lines: ").append(sampleLines.get(entry.getKey())).append(")");
+        }
+        return builder.toString();
+    }
+
+    /**
+     * A line rejected by the validation stage, with its raw fields kept for inspection.
+     */
+    public static class RejectedLine {
+        private final Set<ErrorType> errorTypes;
+        private final int lineNumber;
+        private final String[] fields;
+
+        /**
+         * Constructs a RejectedLine instance.
+         *
+         * @param errorTypes The problems found on the line.
+         * @param lineNumber The line number in the CSV file.
+         * @param fields     The raw fields of the line.
+         */
+        public RejectedLine(Set<ErrorType> errorTypes, int lineNumber, String[] fields) {
+            this.errorTypes = Collections.unmodifiableSet(EnumSet.copyOf(errorTypes));
+            this.lineNumber = lineNumber;
+            this.fields = fields.clone();
+        }
+
+        /**
+         * Gets the problems found on the line.
+         *
+         * @return The error types.
+         */
+        public Set<ErrorType> getErrorTypes() {
+            return errorTypes;
+        }
+
+        /**
+         * Gets the line number in the CSV file.
+         *
+         * @return The line number.
+         */
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        /**
+         * Gets the raw fields of the line, as read from the CSV file.
+         *
+         * @return A copy of the fields.
+         */
+        public String[] getFields() {
+            return fields.clone();
+        }
+    }
+}
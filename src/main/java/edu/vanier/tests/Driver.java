@@ -1,9 +1,23 @@
 package edu.vanier.tests;
 
 import edu.vanier.controllers.PostalCodeController;
+import edu.vanier.controllers.RoutePlanner;
+import edu.vanier.models.DistanceBands;
+import edu.vanier.models.NearbyLocation;
 import edu.vanier.models.PostalCode;
+import edu.vanier.models.Route;
+import edu.vanier.models.ValidationReport;
+import edu.vanier.models.ValidationReport.ErrorType;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Driver class for testing the functionality of the PostalCodeController.
@@ -21,8 +35,13 @@ public class Driver {
 
         // Run the testParse method to test the parsing functionality
         testParse(controller);
+        testValidationReport("src/main/resources/postalcodes_invalid.csv");
         testDistanceTo(controller);
         testNearbyLocations(controller, "E2E");
+        testRoutePlanner(controller);
+        testSuggest(controller);
+        testReverseGeocoding(controller);
+        testDistanceBands(controller);
     }
 
     /**
@@ -68,6 +87,65 @@ public class Driver {
         }
     }
 
+    /**
+     * Tests the validation report on a small CSV file with one bad line per error type,
+     * a line with two problems, and a postal code that appears twice.
+     *
+     * @param csvFilePath The path of the CSV file with invalid lines.
+     */
+    public static void testValidationReport(String csvFilePath) {
+        System.out.println("\nTesting the validation report...");
+        PostalCodeController controller = new PostalCodeController(csvFilePath);
+
+        // Parse twice: the second parse must not keep postal codes from the first one.
+        controller.parse();
+        controller.parse();
+        ValidationReport report = controller.getValidationReport();
+        System.out.println(report);
+
+        // Line 9 has both an empty city and an invalid latitude, so those types are counted twice.
+        Map<ErrorType, Integer> expectedCounts = Map.of(
+                ErrorType.COLUMN_COUNT, 1, ErrorType.NUMBER_FORMAT, 1, ErrorType.POSTAL_CODE, 1,
+                ErrorType.CITY, 2, ErrorType.PROVINCE, 1, ErrorType.LATITUDE, 2, ErrorType.LONGITUDE, 1);
+        Map<ErrorType, List<Integer>> expectedSamples = Map.of(
+                ErrorType.COLUMN_COUNT, List.of(2), ErrorType.NUMBER_FORMAT, List.of(3),
+                ErrorType.POSTAL_CODE, List.of(4), ErrorType.CITY, List.of(5, 9), ErrorType.PROVINCE, List.of(6),
+                ErrorType.LATITUDE, List.of(7, 9), ErrorType.LONGITUDE, List.of(8));
+        for (ErrorType errorType : ErrorType.values()) {
+            int count = report.getErrorCount(errorType);
+            List<Integer> samples = report.getSampleLines(errorType);
+            if (count == expectedCounts.get(errorType) && samples.equals(expectedSamples.get(errorType))) {
+                System.out.println("Test Passed: " + errorType + " counted " + count + " time(s) on lines " + samples + ".");
+            } else {
+                System.out.println("Test Failed: " + errorType + " counted " + count + " time(s) on lines " + samples
+                        + ", expected " + expectedCounts.get(errorType) + " on lines " + expectedSamples.get(errorType) + ".");
+            }
+        }
+
+        List<ValidationReport.RejectedLine> quarantine = report.getQuarantine();
+        if (quarantine.size() == 8 && report.getRejected() == 8
+                && quarantine.get(7).getErrorTypes().equals(EnumSet.of(ErrorType.CITY, ErrorType.LATITUDE))) {
+            System.out.println("Test Passed: 8 lines were quarantined, line 9 with both of its problems.");
+        } else {
+            System.out.println("Test Failed: Expected 8 quarantined lines, got " + quarantine.size() + ".");
+        }
+
+        if (report.getDuplicates() == 1 && report.getDuplicateLines().equals(List.of(1))
+                && controller.getPostalCodes().get("H1A").getLatitude() == 45.7) {
+            System.out.println("Test Passed: Line 1 was overridden by the later H1A line.");
+        } else {
+            System.out.println("Test Failed: Expected line 1 to be overridden, got " + report.getDuplicateLines() + ".");
+        }
+
+        if (report.getLinesRead() == 11 && report.getAccepted() == 2
+                && report.getAccepted() == controller.getPostalCodes().size()) {
+            System.out.println("Test Passed: The accepted count matches the " + report.getAccepted() + " postal codes in the map.");
+        } else {
+            System.out.println("Test Failed: " + report.getAccepted() + " lines accepted but "
+                    + controller.getPostalCodes().size() + " postal codes in the map.");
+        }
+    }
+
     /**
      * Tests the distance calculation between two postal codes.
      *
@@ -157,6 +235,242 @@ public class Driver {
         }
     }
 
+    /**
+     * Tests the route length and route optimization of the RoutePlanner.
+     *
+     * @param controller The PostalCodeController instance holding the postal codes.
+     */
+    public static void testRoutePlanner(PostalCodeController controller) {
+        RoutePlanner planner = new RoutePlanner(controller);
+        List<String> stops = List.of("H1E", "V5K", "J7C", "K0H", "H2X", "E2E");
+
+        // 1. Route length in the given order
+        System.out.println("\nRoute Length Test:");
+        double length = planner.routeLength(stops);
+        System.out.printf("Length of route %s: %.2f km%n", stops, length);
+
+        // 2. Optimized route must start at the first stop, visit every stop once,
+        //    and cannot be shorter than the brute-force optimum
+        System.out.println("\nRoute Optimization Test:");
+        Route route = planner.optimizeRoute(stops);
+        System.out.println(route);
+        List<String> orderedStops = new ArrayList<>();
+        for (PostalCode pc : route.getStops()) {
+            orderedStops.add(pc.getPostalCode());
+        }
+        double optimum = shortestRouteLength(planner, stops);
+        System.out.printf("Brute-force optimum: %.2f km, optimized route: %.2f km%n", optimum, route.getTotalDistance());
+        if (orderedStops.get(0).equals(stops.get(0))
+                && orderedStops.size() == stops.size() && orderedStops.containsAll(stops)
+                && Math.abs(planner.routeLength(orderedStops) - route.getTotalDistance()) < 1e-6
+                && route.getTotalDistance() >= optimum - 1e-6) {
+            System.out.println("Test Passed: Optimized route is a valid route starting at " + stops.get(0) + ".");
+        } else {
+            System.out.println("Test Failed: Optimized route is not a valid route of the given stops.");
+        }
+
+        // 3. Invalid postal code in the route
+        System.out.println("\nInvalid Route Test:");
+        if (planner.routeLength(List.of("H1E", "XYZ")) == -1 && planner.optimizeRoute(List.of("H1E", "XYZ")) == null) {
+            System.out.println("Test Passed: Invalid postal code in route handled correctly.");
+        } else {
+            System.out.println("Test Failed: Invalid postal code in route should return an error.");
+        }
+
+        // 4. Cached distances must not outlive the data: after re-parsing a file with moved
+        //    postal codes, the same stops must give the new route length
+        System.out.println("\nRe-parse Cache Test:");
+        try {
+            Path csvFile = Files.createTempFile("postalcodes", ".csv");
+            Files.write(csvFile, List.of("1,ca,A1A,A,NL,45,-73", "2,ca,A1B,B,NL,45,-74", "3,ca,A1C,C,NL,46,-73"));
+            PostalCodeController small = new PostalCodeController(csvFile.toString());
+            small.parse();
+            RoutePlanner smallPlanner = new RoutePlanner(small);
+            List<String> smallStops = List.of("A1A", "A1B", "A1C");
+            double before = smallPlanner.optimizeRoute(smallStops).getTotalDistance();
+
+            Files.write(csvFile, List.of("1,ca,A1A,A,NL,45,-73", "2,ca,A1B,B,NL,50,-80", "3,ca,A1C,C,NL,46,-73"));
+            small.parse();
+            double after = smallPlanner.optimizeRoute(smallStops).getTotalDistance();
+            double expected = shortestRouteLength(smallPlanner, smallStops);
+            Files.delete(csvFile);
+
+            if (Math.abs(after - expected) < 1e-6 && Math.abs(after - before) > 1) {
+                System.out.printf("Test Passed: Route length went from %.2f km to %.2f km after re-parsing.%n", before, after);
+            } else {
+                System.out.printf("Test Failed: Route length after re-parsing is %.2f km, expected %.2f km.%n", after, expected);
+            }
+        } catch (IOException e) {
+            System.out.println("Test Failed: Could not write the temporary CSV file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Finds the length of the shortest route starting at the first stop by trying every order.
+     * Only usable for a handful of stops.
+     *
+     * @param planner The RoutePlanner used to measure each route.
+     * @param stops   The postal codes to visit; the first one is the starting point.
+     * @return The length of the shortest route in kilometers.
+     */
+    private static double shortestRouteLength(RoutePlanner planner, List<String> stops) {
+        List<String> route = new ArrayList<>(stops);
+        return shortestRouteLength(planner, route, 1);
+    }
+
+    private static double shortestRouteLength(RoutePlanner planner, List<String> route, int position) {
+        if (position == route.size()) {
+            return planner.routeLength(route);
+        }
+        double shortest = Double.MAX_VALUE;
+        for (int i = position; i < route.size(); i++) {
+            Collections.swap(route, position, i);
+            shortest = Math.min(shortest, shortestRouteLength(planner, route, position + 1));
+            Collections.swap(route, position, i);
+        }
+        return shortest;
+    }
+
+    /**
+     * Tests the postal code and city name suggestions used for autocompletion.
+     *
+     * @param controller The PostalCodeController instance to be tested.
+     */
+    public static void testSuggest(PostalCodeController controller) {
+        // 1. Postal code prefix
+        System.out.println("\nSuggestions for 'H1':");
+        List<PostalCode> byPostalCode = controller.suggest("H1", 10);
+        printPostalCodeList(byPostalCode);
+        if (!byPostalCode.isEmpty() && byPostalCode.stream().allMatch(pc -> pc.getPostalCode().startsWith("H1"))) {
+            System.out.println("Test Passed: All suggestions start with 'H1'.");
+        } else {
+            System.out.println("Test Failed: Suggestions for 'H1' are missing or incorrect.");
+        }
+
+        // 2. City name prefix, lower case
+        System.out.println("\nSuggestions for 'yellow':");
+        printPostalCodeList(controller.suggest("yellow", 10));
+
+        // 3. No match
+        System.out.println("\nSuggestions for 'QQ':");
+        if (controller.suggest("QQ", 10).isEmpty()) {
+            System.out.println("Test Passed: No suggestions for 'QQ', as expected.");
+        } else {
+            System.out.println("Test Failed: There should be no suggestions for 'QQ'.");
+        }
+
+        // 4. Typos: nothing starts with the text, so suggestions within one edit are returned
+        String[][] typos = {{"H1F", "H1E"}, {"1HE", "H1E"}, {"montrael", "Montreal"}};
+        for (String[] typo : typos) {
+            System.out.println("\nSuggestions for '" + typo[0] + "':");
+            List<PostalCode> suggestions = controller.suggest(typo[0], 10);
+            printPostalCodeList(suggestions);
+            if (suggestions.stream().anyMatch(pc -> pc.getPostalCode().equals(typo[1]) || pc.getCity().startsWith(typo[1]))) {
+                System.out.println("Test Passed: '" + typo[0] + "' suggests " + typo[1] + ".");
+            } else {
+                System.out.println("Test Failed: '" + typo[0] + "' should suggest " + typo[1] + ".");
+            }
+        }
+    }
+
+    /**
+     * Tests the coordinate-based queries: nearest postal code, radius search and batch mode.
+     *
+     * @param controller The PostalCodeController instance to be tested.
+     */
+    public static void testReverseGeocoding(PostalCodeController controller) {
+        // 1. Nearest postal code to the exact coordinates of a known postal code
+        System.out.println("\nNearest Postal Code Test:");
+        PostalCode known = controller.getPostalCodes().get("H1E");
+        PostalCode nearest = controller.nearestPostalCode(known.getLatitude(), known.getLongitude());
+        if (nearest == known) {
+            System.out.println("Test Passed: Nearest postal code to H1E's coordinates is H1E.");
+        } else {
+            System.out.println("Test Failed: Expected H1E but got " + nearest);
+        }
+
+        // 2. Radius search around an arbitrary point (downtown Montreal)
+        System.out.println("\nRadius Search Test (5 km around 45.5017, -73.5673):");
+        List<NearbyLocation> nearbyPoint = controller.nearbyLocations(45.5017, -73.5673, 5);
+        if (nearbyPoint.isEmpty()) {
+            System.out.println("No locations found within the specified radius.");
+        }
+        for (NearbyLocation location : nearbyPoint) {
+            System.out.printf("Postal Code: %-3s | City: %-3s | Distance: %1.2f km%n",
+                    location.getPostalCode().getPostalCode(), location.getPostalCode().getCity(), location.getDistance());
+        }
+
+        // 3. Batch mode, including an invalid point
+        System.out.println("\nBatch Reverse Geocoding Test:");
+        double[] latitudes = {49.2827, 62.4540, 95.0};
+        double[] longitudes = {-123.1207, -114.3718, 0.0};
+        PostalCode[] results = controller.nearestPostalCodes(latitudes, longitudes);
+        for (int i = 0; i < results.length; i++) {
+            System.out.printf("(%.4f, %.4f) -> %s%n", latitudes[i], longitudes[i],
+                    results[i] == null ? "none" : results[i].getPostalCode() + " " + results[i].getCity());
+        }
+        if (results[2] == null) {
+            System.out.println("Test Passed: Invalid coordinates handled correctly.");
+        } else {
+            System.out.println("Test Failed: Invalid coordinates should not return a postal code.");
+        }
+    }
+
+    /**
+     * Tests the distance band aggregation for several origins.
+     *
+     * @param controller The PostalCodeController instance to be tested.
+     */
+    public static void testDistanceBands(PostalCodeController controller) {
+        double[] bandLimits = {25, 50, 100};
+
+        // 1. Counts per province within 25/50/100 km of each origin
+        System.out.println("\nDistance Bands Test (by province, 25/50/100 km):");
+        Map<String, DistanceBands> results = controller.distanceBands(
+                List.of("H1E", "M5V", "V5K", "XYZ"), bandLimits, DistanceBands.GroupBy.PROVINCE);
+        for (DistanceBands bands : results.values()) {
+            System.out.println(bands.getOrigin().getPostalCode() + " totals per band: " + Arrays.toString(bands.getTotals()));
+            for (String province : bands.getGroups()) {
+                System.out.println("  " + province + " within 25/50/100 km: " + Arrays.toString(bands.getCumulativeCounts(province)));
+            }
+        }
+
+        // 2. Non-existent origin is left out
+        if (!results.containsKey("XYZ")) {
+            System.out.println("Test Passed: Non-existent origin 'XYZ' is left out.");
+        } else {
+            System.out.println("Test Failed: Non-existent origin 'XYZ' should be left out.");
+        }
+
+        // 3. Arbitrary depot location, plus an invalid point
+        System.out.println("\nDistance Bands Test (depot at 45.5017, -73.5673, by province):");
+        List<DistanceBands> depots = controller.distanceBands(new double[]{45.5017, 95.0}, new double[]{-73.5673, 0.0},
+                bandLimits, DistanceBands.GroupBy.PROVINCE);
+        System.out.println(depots.get(0));
+        if (depots.get(0).getTotals()[0] > 0 && depots.get(1) == null) {
+            System.out.println("Test Passed: Depot bands counted and invalid point handled correctly.");
+        } else {
+            System.out.println("Test Failed: Depot bands are empty or invalid point was not handled.");
+        }
+
+        // 4. Duplicate origins are rejected
+        try {
+            controller.distanceBands(List.of("H1E", "H1E"), bandLimits, DistanceBands.GroupBy.PROVINCE);
+            System.out.println("Test Failed: Duplicate origins should be rejected.");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Test Passed: Duplicate origins rejected - " + e.getMessage());
+        }
+
+        // 5. Totals within the last band must match a radius search
+        int within100 = Arrays.stream(results.get("H1E").getTotals()).sum();
+        int nearby = controller.nearbyLocations("H1E", 100).size();
+        if (within100 == nearby) {
+            System.out.println("Test Passed: Band totals match nearbyLocations (" + nearby + " postal codes).");
+        } else {
+            System.out.println("Test Failed: Band totals " + within100 + " do not match nearbyLocations " + nearby + ".");
+        }
+    }
+
     /**
      * Helper method to print a list of postal codes with their details.
      *
@@ -0,0 +1,126 @@
+package edu.vanier.tests;
+
+/**
+ * Records latencies in nanoseconds into log-linear buckets, in the style of HdrHistogram.
+ * Values below 1024 ns are recorded exactly; larger values are kept with a relative precision of
+ * about 0.2%, so percentiles such as p99.9 stay accurate without storing every sample.
+ * A histogram is not thread-safe: each thread records into its own and they are merged with {@link #add}.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 10;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT / 2;
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (64 - SUB_BUCKET_BITS) * HALF_SUB_BUCKET_COUNT;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long totalCount;
+    private long totalValue;
+    private long maxValue;
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos The latency in nanoseconds; negative values are recorded as 0.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts[indexOf(value)]++;
+        totalCount++;
+        totalValue += value;
+        maxValue = Math.max(maxValue, value);
+    }
+
+    /**
+     * Adds all the latencies recorded by another histogram to this one.
+     *
+     * @param other The histogram to merge into this one.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        totalValue += other.totalValue;
+        maxValue = Math.max(maxValue, other.maxValue);
+    }
+
+    /**
+     * Gets the latency at the given percentile.
+     *
+     * @param percentile The percentile, between 0 and 100 (e.g. 99.9).
+     * @return The latency in nanoseconds, or 0 if nothing was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(highestValueOf(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    /**
+     * Gets the number of recorded latencies.
+     *
+     * @return The number of recorded latencies.
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Gets the mean of the recorded latencies.
+     *
+     * @return The mean latency in nanoseconds, or 0 if nothing was recorded.
+     */
+    public double getMean() {
+        return totalCount == 0 ? 0 : (double) totalValue / totalCount;
+    }
+
+    /**
+     * Gets the highest recorded latency.
+     *
+     * @return The maximum latency in nanoseconds.
+     */
+    public long getMax() {
+        return maxValue;
+    }
+
+    /**
+     * Finds the bucket of a value. Values are split by magnitude (power of two), and each
+     * magnitude is divided into {@value #HALF_SUB_BUCKET_COUNT} linear sub-buckets.
+     *
+     * @param value The value, not negative.
+     * @return The index of the bucket holding the value.
+     */
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        return SUB_BUCKET_COUNT + (shift - 1) * HALF_SUB_BUCKET_COUNT
+                + (int) (value >>> shift) - HALF_SUB_BUCKET_COUNT;
+    }
+
+    /**
+     * Gets the highest value that falls in a bucket.
+     *
+     * @param index The index of the bucket.
+     * @return The highest value recorded in that bucket.
+     */
+    private static long highestValueOf(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / HALF_SUB_BUCKET_COUNT + 1;
+        long subBucket = (index - SUB_BUCKET_COUNT) % HALF_SUB_BUCKET_COUNT + HALF_SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
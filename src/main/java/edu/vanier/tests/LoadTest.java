@@ -0,0 +1,351 @@
+package edu.vanier.tests;
+
+import edu.vanier.controllers.PostalCodeController;
+import edu.vanier.models.PostalCode;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Load and soak test for the PostalCodeController.
+ * Replays a mix of distance, radius and nearest queries from many threads, picking postal codes
+ * with a Zipfian distribution so a few postal codes are much more popular than the rest, as in real traffic.
+ * Reports latency percentiles per query type, throughput, garbage collection activity, and the number
+ * of bytes allocated per query of each type. Radius queries search around the coordinates of a postal code
+ * with the thread-safe coordinate-based API, and nearest queries use a simulated GPS fix near a postal code.
+ *
+ * <p>Arguments are given as key=value pairs, all optional:
+ * <ul>
+ *     <li>threads - number of client threads (default: number of processors)</li>
+ *     <li>warmup - warmup duration in seconds, not recorded (default: 5)</li>
+ *     <li>duration - measured duration in seconds (default: 30)</li>
+ *     <li>mix - percentage of distance:radius:nearest queries (default: 60:20:20)</li>
+ *     <li>zipf - exponent of the Zipfian distribution (default: 0.99)</li>
+ *     <li>radius - radius of the radius queries in kilometers (default: 25)</li>
+ * </ul>
+ * For example: {@code threads=8 duration=300 mix=50:25:25}
+ */
+public class LoadTest {
+
+    private static final String[] QUERY_TYPES = {"distance", "radius", "nearest"};
+
+    /**
+     * Sink for query results, so the JIT compiler cannot discard the queries as unused.
+     */
+    private static double sink;
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = parseArguments(args);
+        int threads = Integer.parseInt(options.getOrDefault("threads", String.valueOf(Runtime.getRuntime().availableProcessors())));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "5"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "30"));
+        double zipfExponent = Double.parseDouble(options.getOrDefault("zipf", "0.99"));
+        int radius = Integer.parseInt(options.getOrDefault("radius", "25"));
+        int[] mix = parseMix(options.getOrDefault("mix", "60:20:20"));
+
+        String csvFilePath = "src/main/resources/postalcodes.csv";
+        PostalCodeController controller = new PostalCodeController(csvFilePath);
+        controller.parse();
+
+        // Shuffle the keys so the popular postal codes are spread across the country.
+        List<PostalCode> keys = new ArrayList<>(controller.getPostalCodes().values());
+        Collections.shuffle(keys, new Random(42));
+        ZipfianGenerator zipf = new ZipfianGenerator(keys.size(), zipfExponent);
+
+        System.out.printf("Load test: %d postal codes, %d threads, %d s warmup, %d s measured, mix %d:%d:%d, zipf %.2f, radius %d km%n",
+                keys.size(), threads, warmupSeconds, durationSeconds, mix[0], mix[1], mix[2], zipfExponent, radius);
+
+        System.out.println("Warming up...");
+        run(controller, keys, zipf, mix, radius, threads, warmupSeconds);
+
+        System.out.println("Running...");
+        long gcCountBefore = gcCount();
+        long gcTimeBefore = gcTime();
+        long start = System.nanoTime();
+        Worker[] workers = run(controller, keys, zipf, mix, radius, threads, durationSeconds);
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        long gcCount = gcCount() - gcCountBefore;
+        long gcTime = gcTime() - gcTimeBefore;
+
+        report(workers, elapsedSeconds, gcCount, gcTime);
+    }
+
+    /**
+     * Runs the workers for the given duration and waits for them to finish.
+     *
+     * @return The finished workers, holding their measurements.
+     */
+    private static Worker[] run(PostalCodeController controller, List<PostalCode> keys, ZipfianGenerator zipf,
+                                int[] mix, int radius, int threads, int seconds) throws InterruptedException {
+        CountDownLatch startSignal = new CountDownLatch(1);
+        Worker[] workers = new Worker[threads];
+        Thread[] workerThreads = new Thread[threads];
+
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(controller, keys, zipf, mix, radius, startSignal, i);
+            workerThreads[i] = new Thread(workers[i], "load-test-" + i);
+            workerThreads[i].start();
+        }
+
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        for (Worker worker : workers) {
+            worker.deadline = deadline;
+        }
+        startSignal.countDown();
+
+        for (int i = 0; i < threads; i++) {
+            workerThreads[i].join();
+            sink += workers[i].checksum;
+        }
+        return workers;
+    }
+
+    /**
+     * Prints the merged latency percentiles per query type, the throughput and the allocation profile.
+     */
+    private static void report(Worker[] workers, double elapsedSeconds, long gcCount, long gcTime) {
+        LatencyHistogram[] histograms = new LatencyHistogram[QUERY_TYPES.length];
+        LatencyHistogram all = new LatencyHistogram();
+        long[] allocatedBytes = new long[QUERY_TYPES.length];
+        boolean allocationSupported = true;
+
+        for (int type = 0; type < QUERY_TYPES.length; type++) {
+            histograms[type] = new LatencyHistogram();
+            for (Worker worker : workers) {
+                histograms[type].add(worker.histograms[type]);
+            }
+            all.add(histograms[type]);
+        }
+        for (Worker worker : workers) {
+            if (!worker.allocationSupported) {
+                allocationSupported = false;
+            }
+            for (int type = 0; type < QUERY_TYPES.length; type++) {
+                allocatedBytes[type] += worker.allocatedBytes[type];
+            }
+        }
+
+        System.out.printf("%n%-10s %12s %10s %10s %10s %10s %10s %10s%n",
+                "Query", "Count", "Mean(us)", "p50(us)", "p99(us)", "p99.9(us)", "Max(us)", "Ops/s");
+        for (int type = 0; type < QUERY_TYPES.length; type++) {
+            printRow(QUERY_TYPES[type], histograms[type], elapsedSeconds);
+        }
+        printRow("all", all, elapsedSeconds);
+
+        System.out.printf("%nGC: %d collections, %d ms total (%.2f%% of run time)%n",
+                gcCount, gcTime, gcTime / (elapsedSeconds * 10));
+        if (!allocationSupported) {
+            System.out.println("Allocation: not supported by this JVM");
+            return;
+        }
+        long totalAllocatedBytes = 0;
+        System.out.printf("%n%-10s %12s %12s%n", "Query", "MB/s", "Bytes/op");
+        for (int type = 0; type < QUERY_TYPES.length; type++) {
+            printAllocationRow(QUERY_TYPES[type], allocatedBytes[type], histograms[type].getTotalCount(), elapsedSeconds);
+            totalAllocatedBytes += allocatedBytes[type];
+        }
+        printAllocationRow("all", totalAllocatedBytes, all.getTotalCount(), elapsedSeconds);
+    }
+
+    private static void printAllocationRow(String name, long allocatedBytes, long count, double elapsedSeconds) {
+        System.out.printf("%-10s %12.1f %12.0f%n", name, allocatedBytes / elapsedSeconds / (1024 * 1024),
+                count == 0 ? 0.0 : (double) allocatedBytes / count);
+    }
+
+    private static void printRow(String name, LatencyHistogram histogram, double elapsedSeconds) {
+        System.out.printf("%-10s %12d %10.2f %10.2f %10.2f %10.2f %10.2f %10.0f%n",
+                name, histogram.getTotalCount(), histogram.getMean() / 1000,
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMax() / 1000.0,
+                histogram.getTotalCount() / elapsedSeconds);
+    }
+
+    private static Map<String, String> parseArguments(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Arguments must be given as key=value: " + arg);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    private static int[] parseMix(String mix) {
+        String[] parts = mix.split(":");
+        if (parts.length != QUERY_TYPES.length) {
+            throw new IllegalArgumentException("Mix must be given as distance:radius:nearest, e.g. 60:20:20");
+        }
+        int[] weights = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            weights[i] = Integer.parseInt(parts[i].trim());
+        }
+        return weights;
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcTime() {
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return time;
+    }
+
+    /**
+     * Client thread sending queries until the deadline, recording the latency of each one
+     * and the number of bytes allocated by each query type. The query inputs are generated
+     * before the clock starts, and the allocation counter is read outside the timed region.
+     */
+    private static class Worker implements Runnable {
+        private final PostalCodeController controller;
+        private final List<PostalCode> keys;
+        private final ZipfianGenerator zipf;
+        private final int[] mix;
+        private final int radius;
+        private final CountDownLatch startSignal;
+        private final SplittableRandom random;
+        private final LatencyHistogram[] histograms = new LatencyHistogram[QUERY_TYPES.length];
+        private volatile long deadline;
+        private final long[] allocatedBytes = new long[QUERY_TYPES.length];
+        private boolean allocationSupported;
+        private double checksum;
+
+        Worker(PostalCodeController controller, List<PostalCode> keys, ZipfianGenerator zipf, int[] mix,
+               int radius, CountDownLatch startSignal, int seed) {
+            this.controller = controller;
+            this.keys = keys;
+            this.zipf = zipf;
+            this.mix = mix;
+            this.radius = radius;
+            this.startSignal = startSignal;
+            this.random = new SplittableRandom(seed);
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i] = new LatencyHistogram();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                startSignal.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            com.sun.management.ThreadMXBean threadBean = threadMXBean();
+            allocationSupported = threadBean != null;
+            int totalWeight = mix[0] + mix[1] + mix[2];
+            double result = 0;
+
+            while (System.nanoTime() < deadline) {
+                PostalCode from = keys.get(zipf.next(random));
+                int choice = random.nextInt(totalWeight);
+                int type = choice < mix[0] ? 0 : choice < mix[0] + mix[1] ? 1 : 2;
+
+                String to = null;
+                double latitude = from.getLatitude();
+                double longitude = from.getLongitude();
+                if (type == 0) {
+                    to = keys.get(zipf.next(random)).getPostalCode();
+                } else if (type == 2) {
+                    // Simulate a GPS fix a few kilometers away from the postal code.
+                    latitude = Math.max(-90, Math.min(90, latitude + random.nextDouble(-0.05, 0.05)));
+                    longitude = wrapLongitude(longitude + random.nextDouble(-0.05, 0.05));
+                }
+
+                long allocatedBefore = allocationSupported ? threadBean.getCurrentThreadAllocatedBytes() : 0;
+                long start = System.nanoTime();
+                if (type == 0) {
+                    result += controller.distanceTo(from.getPostalCode(), to);
+                } else if (type == 1) {
+                    result += controller.nearbyLocations(latitude, longitude, radius).size();
+                } else {
+                    PostalCode nearest = controller.nearestPostalCode(latitude, longitude);
+                    result += nearest == null ? 0 : nearest.getLatitude();
+                }
+                long end = System.nanoTime();
+                if (allocationSupported) {
+                    allocatedBytes[type] += threadBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+                }
+                histograms[type].record(end - start);
+            }
+
+            checksum = result;
+        }
+
+        private static double wrapLongitude(double longitude) {
+            if (longitude > 180) {
+                return longitude - 360;
+            }
+            if (longitude < -180) {
+                return longitude + 360;
+            }
+            return longitude;
+        }
+
+        private static com.sun.management.ThreadMXBean threadMXBean() {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threadBean
+                    && threadBean.isThreadAllocatedMemorySupported()) {
+                threadBean.setThreadAllocatedMemoryEnabled(true);
+                return threadBean;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Generates indexes from 0 to n - 1 following a Zipfian distribution: index k is picked
+     * with a probability proportional to 1 / (k + 1)^exponent. Uses a precomputed cumulative
+     * distribution and a binary search, and is safe to share between threads.
+     */
+    private static class ZipfianGenerator {
+        private final double[] cumulative;
+
+        ZipfianGenerator(int n, double exponent) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int k = 0; k < n; k++) {
+                sum += 1 / Math.pow(k + 1, exponent);
+                cumulative[k] = sum;
+            }
+            for (int k = 0; k < n; k++) {
+                cumulative[k] /= sum;
+            }
+        }
+
+        int next(SplittableRandom random) {
+            double value = random.nextDouble();
+            int low = 0;
+            int high = cumulative.length - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (cumulative[middle] < value) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}